@@ -1,5 +1,6 @@
 package com.telegram.assistant.service;
 
+import com.telegram.assistant.service.audio.AudioPreprocessingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
@@ -10,6 +11,8 @@ import org.springframework.web.client.RestTemplate;
 import org.telegram.telegrambots.meta.api.objects.Voice;
 import org.springframework.core.io.ByteArrayResource;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Сервис для работы с Whisper API для преобразования голосовых сообщений в текст.
  */
@@ -21,6 +24,7 @@ public class WhisperService {
     private final RestTemplate restTemplate;
     private final TelegramFileService telegramFileService;
     private final ConfigurationService configurationService;
+    private final AudioPreprocessingService audioPreprocessingService;
 
     /**
      * Преобразует голосовое сообщение в текст.
@@ -36,8 +40,11 @@ public class WhisperService {
             }
 
             // Получаем файл голосового сообщения
-            byte[] voiceData = telegramFileService.downloadVoiceFile(voice);
-            
+            byte[] originalData = telegramFileService.downloadVoiceFile(voice);
+
+            // Уменьшаем файл: 16 кГц моно, без тишины, низкий битрейт
+            byte[] voiceData = audioPreprocessingService.preprocess(originalData);
+
             // Подготавливаем данные для отправки
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
             ByteArrayResource voiceResource = new ByteArrayResource(voiceData) {
@@ -54,12 +61,16 @@ public class WhisperService {
 
             // Отправляем запрос
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+            long start = System.nanoTime();
             ResponseEntity<String> response = restTemplate.exchange(
                 whisperApiUrl + "/asr",
                 HttpMethod.POST,
                 requestEntity,
                 String.class
             );
+            log.info("Запрос к Whisper: отправлено {} байт (исходно {}), ответ за {} мс",
+                    voiceData.length, originalData.length,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 return response.getBody();
@@ -0,0 +1,119 @@
+package com.telegram.assistant.service.audio;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис предобработки голосовых сообщений перед отправкой в Whisper.
+ * Декодирует Ogg/Opus в моно PCM 16 кГц, удаляет тишину и заново кодирует в Opus
+ * с низким битрейтом. Вычисления выполняются в отдельном ограниченном пуле потоков;
+ * при любой ошибке, таймауте или переполнении пула возвращаются исходные данные.
+ */
+@Slf4j
+@Service
+public class AudioPreprocessingService {
+
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final int bitrate;
+    private final ThreadPoolExecutor executor;
+
+    public AudioPreprocessingService(
+            @Value("${audio.preprocessing.enabled:true}") boolean enabled,
+            @Value("${audio.preprocessing.pool-size:2}") int poolSize,
+            @Value("${audio.preprocessing.queue-capacity:16}") int queueCapacity,
+            @Value("${audio.preprocessing.timeout-ms:10000}") long timeoutMs,
+            @Value("${audio.preprocessing.bitrate:16000}") int bitrate) {
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.bitrate = bitrate;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audio-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Подготавливает голосовое сообщение для распознавания.
+     *
+     * @param voiceData содержимое файла Ogg/Opus
+     * @return уменьшенный файл Ogg/Opus или исходные данные, если предобработка не удалась
+     */
+    public byte[] preprocess(byte[] voiceData) {
+        if (!enabled) {
+            return voiceData;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<byte[]> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> process(voiceData), executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Пул предобработки аудио переполнен, используется исходный файл");
+            return voiceData;
+        }
+
+        try {
+            byte[] processed = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (processed.length >= voiceData.length) {
+                log.debug("Предобработка не уменьшила размер ({} -> {} байт, {} мс), используется исходный файл",
+                        voiceData.length, processed.length, elapsedMs);
+                return voiceData;
+            }
+            log.info("Предобработка голосового сообщения: {} -> {} байт за {} мс",
+                    voiceData.length, processed.length, elapsedMs);
+            return processed;
+        } catch (TimeoutException e) {
+            // Отменяем задачу, чтобы она не занимала пул; ещё не начатая задача будет пропущена
+            future.cancel(true);
+            log.warn("Превышено время предобработки аудио ({} мс), используется исходный файл", timeoutMs);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            log.warn("Прервана предобработка аудио, используется исходный файл");
+        } catch (ExecutionException e) {
+            log.warn("Ошибка предобработки аудио, используется исходный файл", e.getCause());
+        }
+        return voiceData;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private byte[] process(byte[] voiceData) {
+        try {
+            short[] pcm = OggOpusCodec.decode(voiceData);
+            short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+            log.debug("Удалено {} мс тишины из {} мс",
+                    (pcm.length - trimmed.length) * 1000L / OggOpusCodec.SAMPLE_RATE,
+                    pcm.length * 1000L / OggOpusCodec.SAMPLE_RATE);
+            return OggOpusCodec.encode(trimmed, bitrate);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
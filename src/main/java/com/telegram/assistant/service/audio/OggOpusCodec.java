@@ -0,0 +1,298 @@
+package com.telegram.assistant.service.audio;
+
+import io.github.jaredmdobson.concentus.OpusApplication;
+import io.github.jaredmdobson.concentus.OpusDecoder;
+import io.github.jaredmdobson.concentus.OpusEncoder;
+import io.github.jaredmdobson.concentus.OpusException;
+import io.github.jaredmdobson.concentus.OpusSignal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Декодирование и кодирование аудио в формате Ogg/Opus (RFC 7845) на чистой Java.
+ * Работает только с моно PCM 16 кГц — нативным форматом входа Whisper.
+ */
+final class OggOpusCodec {
+
+    /** Частота дискретизации PCM, с которой работает предобработка. */
+    static final int SAMPLE_RATE = 16000;
+
+    /** Длительность кадра кодирования: 20 мс при 16 кГц. */
+    static final int FRAME_SIZE = 320;
+
+    /** Granule position в Ogg/Opus всегда отсчитывается на частоте 48 кГц. */
+    private static final int GRANULE_RATE_FACTOR = 48000 / SAMPLE_RATE;
+
+    /** Максимальная длительность Opus-пакета: 120 мс при 16 кГц. */
+    private static final int MAX_PACKET_SAMPLES = 1920;
+
+    private static final int OPUS_HEAD_SIZE = 19;
+    private static final int MAX_PACKET_BYTES = 1275;
+    private static final int MAX_PAGE_PACKETS = 50;
+    private static final int MAX_PAGE_SEGMENTS = 255;
+    private static final int ENCODER_COMPLEXITY = 5;
+    private static final String VENDOR = "telegram-assistant";
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int r = i << 24;
+            for (int j = 0; j < 8; j++) {
+                r = (r & 0x80000000) != 0 ? (r << 1) ^ 0x04c11db7 : r << 1;
+            }
+            CRC_TABLE[i] = r;
+        }
+    }
+
+    private OggOpusCodec() {
+    }
+
+    /**
+     * Декодирует первый логический поток Ogg/Opus в моно PCM 16 кГц.
+     * Стерео-потоки сводятся в моно декодером Opus.
+     *
+     * @param data содержимое файла Ogg/Opus
+     * @return отсчёты PCM
+     * @throws IOException если данные не являются корректным потоком Ogg/Opus
+     */
+    static short[] decode(byte[] data) throws IOException {
+        List<byte[]> packets = readPackets(data);
+        if (packets.size() < 2 || !startsWith(packets.get(0), "OpusHead")) {
+            throw new IOException("Поток не содержит заголовка OpusHead");
+        }
+        byte[] head = packets.get(0);
+        if (head.length < OPUS_HEAD_SIZE) {
+            throw new IOException("Заголовок OpusHead слишком короткий: " + head.length + " байт");
+        }
+        int preSkip = ((head[10] & 0xFF) | (head[11] & 0xFF) << 8) / GRANULE_RATE_FACTOR;
+
+        try {
+            OpusDecoder decoder = new OpusDecoder(SAMPLE_RATE, 1);
+            short[] frame = new short[MAX_PACKET_SAMPLES];
+            short[] pcm = new short[SAMPLE_RATE];
+            int length = 0;
+
+            // Пакет 0 — OpusHead, пакет 1 — OpusTags, далее аудио
+            for (int i = 2; i < packets.size(); i++) {
+                byte[] packet = packets.get(i);
+                if (packet.length == 0) {
+                    continue;
+                }
+                int samples = decoder.decode(packet, 0, packet.length, frame, 0, MAX_PACKET_SAMPLES, false);
+                if (length + samples > pcm.length) {
+                    pcm = Arrays.copyOf(pcm, Math.max(pcm.length * 2, length + samples));
+                }
+                System.arraycopy(frame, 0, pcm, length, samples);
+                length += samples;
+            }
+
+            int start = Math.min(preSkip, length);
+            return Arrays.copyOfRange(pcm, start, length);
+        } catch (OpusException e) {
+            throw new IOException("Ошибка декодирования Opus: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Кодирует моно PCM 16 кГц в Ogg/Opus с профилем для речи.
+     *
+     * @param pcm отсчёты PCM
+     * @param bitrate целевой битрейт, бит/с
+     * @return содержимое файла Ogg/Opus
+     * @throws IOException если произошла ошибка кодирования
+     */
+    static byte[] encode(short[] pcm, int bitrate) throws IOException {
+        try {
+            OpusEncoder encoder = new OpusEncoder(SAMPLE_RATE, 1, OpusApplication.OPUS_APPLICATION_VOIP);
+            encoder.setBitrate(bitrate);
+            encoder.setSignalType(OpusSignal.OPUS_SIGNAL_VOICE);
+            encoder.setComplexity(ENCODER_COMPLEXITY);
+
+            int lookahead = encoder.getLookahead();
+            int preSkip = lookahead * GRANULE_RATE_FACTOR;
+
+            // Дополняем тишиной на величину задержки кодера и до целого числа кадров
+            int padded = pcm.length + lookahead;
+            int frames = (padded + FRAME_SIZE - 1) / FRAME_SIZE;
+            short[] input = Arrays.copyOf(pcm, frames * FRAME_SIZE);
+
+            OggPageWriter writer = new OggPageWriter();
+            writer.writePage(List.of(opusHead(preSkip)), 0, 0x02);
+            writer.writePage(List.of(opusTags()), 0, 0x00);
+
+            long finalGranule = preSkip + (long) pcm.length * GRANULE_RATE_FACTOR;
+            byte[] buffer = new byte[MAX_PACKET_BYTES];
+            List<byte[]> pagePackets = new ArrayList<>();
+            int pageSegments = 0;
+
+            for (int i = 0; i < frames; i++) {
+                int size = encoder.encode(input, i * FRAME_SIZE, FRAME_SIZE, buffer, 0, buffer.length);
+                byte[] packet = Arrays.copyOf(buffer, size);
+                int segments = size / 255 + 1;
+
+                if (pageSegments + segments > MAX_PAGE_SEGMENTS || pagePackets.size() >= MAX_PAGE_PACKETS) {
+                    writer.writePage(pagePackets, (long) i * FRAME_SIZE * GRANULE_RATE_FACTOR, 0x00);
+                    pagePackets = new ArrayList<>();
+                    pageSegments = 0;
+                }
+                pagePackets.add(packet);
+                pageSegments += segments;
+            }
+            long lastGranule = Math.min((long) frames * FRAME_SIZE * GRANULE_RATE_FACTOR, finalGranule);
+            writer.writePage(pagePackets, lastGranule, 0x04);
+
+            return writer.toByteArray();
+        } catch (OpusException e) {
+            throw new IOException("Ошибка кодирования Opus: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Собирает пакеты первого логического потока из страниц Ogg.
+     */
+    static List<byte[]> readPackets(byte[] data) throws IOException {
+        List<byte[]> packets = new ArrayList<>();
+        ByteArrayOutputStream current = new ByteArrayOutputStream();
+        Integer serial = null;
+        int pos = 0;
+
+        while (pos + 27 <= data.length) {
+            if (data[pos] != 'O' || data[pos + 1] != 'g' || data[pos + 2] != 'g' || data[pos + 3] != 'S') {
+                throw new IOException("Некорректная страница Ogg на позиции " + pos);
+            }
+            int pageSerial = readInt(data, pos + 14);
+            int segmentCount = data[pos + 26] & 0xFF;
+            int bodyPos = pos + 27 + segmentCount;
+            if (bodyPos > data.length) {
+                throw new IOException("Страница Ogg обрезана на позиции " + pos);
+            }
+            if (serial == null) {
+                serial = pageSerial;
+            }
+
+            int bodySize = 0;
+            for (int i = 0; i < segmentCount; i++) {
+                int lacing = data[pos + 27 + i] & 0xFF;
+                if (bodyPos + bodySize + lacing > data.length) {
+                    throw new IOException("Страница Ogg обрезана на позиции " + pos);
+                }
+                if (pageSerial == serial) {
+                    current.write(data, bodyPos + bodySize, lacing);
+                    if (lacing < 255) {
+                        packets.add(current.toByteArray());
+                        current.reset();
+                    }
+                }
+                bodySize += lacing;
+            }
+            pos = bodyPos + bodySize;
+        }
+        return packets;
+    }
+
+    private static byte[] opusHead(int preSkip) {
+        byte[] head = new byte[OPUS_HEAD_SIZE];
+        System.arraycopy("OpusHead".getBytes(StandardCharsets.US_ASCII), 0, head, 0, 8);
+        head[8] = 1;
+        head[9] = 1;
+        head[10] = (byte) preSkip;
+        head[11] = (byte) (preSkip >> 8);
+        writeInt(head, 12, SAMPLE_RATE);
+        // Усиление 0 дБ и схема каналов 0 (моно/стерео) — нулевые байты
+        return head;
+    }
+
+    private static byte[] opusTags() {
+        byte[] vendor = VENDOR.getBytes(StandardCharsets.UTF_8);
+        byte[] tags = new byte[8 + 4 + vendor.length + 4];
+        System.arraycopy("OpusTags".getBytes(StandardCharsets.US_ASCII), 0, tags, 0, 8);
+        writeInt(tags, 8, vendor.length);
+        System.arraycopy(vendor, 0, tags, 12, vendor.length);
+        return tags;
+    }
+
+    private static boolean startsWith(byte[] data, String magic) {
+        byte[] expected = magic.getBytes(StandardCharsets.US_ASCII);
+        return data.length >= expected.length
+                && Arrays.equals(Arrays.copyOf(data, expected.length), expected);
+    }
+
+    /**
+     * Вычисляет контрольную сумму страницы Ogg; поле CRC (байты 22–25) считается нулевым.
+     *
+     * @param page страница Ogg целиком
+     * @return контрольная сумма страницы
+     */
+    static int pageCrc(byte[] page) {
+        int crc = 0;
+        for (int i = 0; i < page.length; i++) {
+            int b = i >= 22 && i < 26 ? 0 : page[i];
+            crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ b) & 0xFF];
+        }
+        return crc;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+        data[offset + 2] = (byte) (value >> 16);
+        data[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Формирует страницы Ogg одного логического потока.
+     */
+    static final class OggPageWriter {
+
+        private static final int STREAM_SERIAL = 0x4f707573;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int sequence;
+
+        void writePage(List<byte[]> packets, long granule, int headerType) {
+            ByteArrayOutputStream lacing = new ByteArrayOutputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            for (byte[] packet : packets) {
+                int remaining = packet.length;
+                while (remaining >= 255) {
+                    lacing.write(255);
+                    remaining -= 255;
+                }
+                lacing.write(remaining);
+                body.writeBytes(packet);
+            }
+
+            byte[] page = new byte[27 + lacing.size() + body.size()];
+            System.arraycopy("OggS".getBytes(StandardCharsets.US_ASCII), 0, page, 0, 4);
+            page[5] = (byte) headerType;
+            writeInt(page, 6, (int) granule);
+            writeInt(page, 10, (int) (granule >>> 32));
+            writeInt(page, 14, STREAM_SERIAL);
+            writeInt(page, 18, sequence++);
+            page[26] = (byte) lacing.size();
+            System.arraycopy(lacing.toByteArray(), 0, page, 27, lacing.size());
+            System.arraycopy(body.toByteArray(), 0, page, 27 + lacing.size(), body.size());
+
+            writeInt(page, 22, pageCrc(page));
+
+            out.writeBytes(page);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.telegram.assistant.service.audio;
+
+import java.util.Arrays;
+
+/**
+ * Энергетический детектор речевой активности.
+ * Обрезает тишину в начале и конце записи и сокращает длинные паузы.
+ */
+final class VoiceActivityDetector {
+
+    /** Запас над оценкой уровня шума, дБ. */
+    private static final double NOISE_MARGIN_DB = 12.0;
+
+    /** Минимальный порог речи, дБ относительно полной шкалы. */
+    private static final double MIN_THRESHOLD_DB = -50.0;
+
+    /** Перцентиль энергий кадров, принимаемый за уровень шума. */
+    private static final double NOISE_PERCENTILE = 0.1;
+
+    /**
+     * Насколько порог может быть ниже типичного уровня речи, дБ.
+     * Не даёт принять за паузу тихий участок речи, когда в записи почти нет тишины
+     * и оценка шума по перцентилю оказывается уровнем самой речи.
+     */
+    private static final double SPEECH_RANGE_DB = 30.0;
+
+    /** Сколько кадров тишины сохраняется вокруг речи: 200 мс. */
+    private static final int HANGOVER_FRAMES = 10;
+
+    /** Максимальная длительность паузы внутри речи с учётом HANGOVER_FRAMES с обеих сторон: 600 мс. */
+    private static final int MAX_PAUSE_FRAMES = 30;
+
+    /** Сколько кадров паузы может остаться между участками hangover. */
+    private static final int MAX_GAP_FRAMES = MAX_PAUSE_FRAMES - 2 * HANGOVER_FRAMES;
+
+    private static final int FRAME_SIZE = OggOpusCodec.FRAME_SIZE;
+
+    private VoiceActivityDetector() {
+    }
+
+    /**
+     * Удаляет тишину из записи.
+     *
+     * @param pcm отсчёты моно PCM
+     * @return отсчёты без тишины или исходный массив, если речь не обнаружена
+     */
+    static short[] trimSilence(short[] pcm) {
+        int frames = pcm.length / FRAME_SIZE;
+        if (frames == 0) {
+            return pcm;
+        }
+
+        double[] energy = new double[frames];
+        for (int i = 0; i < frames; i++) {
+            energy[i] = frameEnergyDb(pcm, i * FRAME_SIZE);
+        }
+
+        double[] sorted = energy.clone();
+        Arrays.sort(sorted);
+        double noiseFloor = sorted[(int) (NOISE_PERCENTILE * (frames - 1))];
+        double threshold = Math.max(noiseFloor + NOISE_MARGIN_DB, MIN_THRESHOLD_DB);
+        double[] loud = Arrays.stream(sorted).filter(e -> e > threshold).toArray();
+        if (loud.length == 0) {
+            return pcm;
+        }
+        double speechLevel = loud[loud.length / 2];
+        double speechThreshold = Math.min(threshold, speechLevel - SPEECH_RANGE_DB);
+
+        // Расширяем каждый речевой кадр на HANGOVER_FRAMES в обе стороны,
+        // чтобы не срезать тихие начала и окончания слов
+        boolean[] speech = new boolean[frames];
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < frames; i++) {
+            if (energy[i] > speechThreshold) {
+                int from = Math.max(0, i - HANGOVER_FRAMES);
+                int to = Math.min(frames - 1, i + HANGOVER_FRAMES);
+                Arrays.fill(speech, from, to + 1, true);
+                if (first < 0) {
+                    first = from;
+                }
+                last = to;
+            }
+        }
+        if (first < 0) {
+            return pcm;
+        }
+
+        short[] result = new short[pcm.length];
+        int length = 0;
+        int i = first;
+        while (i <= last) {
+            int runEnd = i;
+            while (runEnd <= last && speech[runEnd] == speech[i]) {
+                runEnd++;
+            }
+            int run = runEnd - i;
+            if (speech[i] || run <= MAX_GAP_FRAMES) {
+                length = copyFrames(pcm, i, run, result, length);
+            } else {
+                // Длинная пауза: оставляем её начало и конец, чтобы вместе с hangover
+                // пауза длилась не больше MAX_PAUSE_FRAMES
+                int head = MAX_GAP_FRAMES / 2;
+                int tail = MAX_GAP_FRAMES - head;
+                length = copyFrames(pcm, i, head, result, length);
+                length = copyFrames(pcm, runEnd - tail, tail, result, length);
+            }
+            i = runEnd;
+        }
+
+        // Хвост короче кадра относится к последнему кадру речи
+        if (last == frames - 1) {
+            int rest = pcm.length - frames * FRAME_SIZE;
+            System.arraycopy(pcm, frames * FRAME_SIZE, result, length, rest);
+            length += rest;
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private static int copyFrames(short[] pcm, int frame, int count, short[] target, int offset) {
+        int size = count * FRAME_SIZE;
+        System.arraycopy(pcm, frame * FRAME_SIZE, target, offset, size);
+        return offset + size;
+    }
+
+    private static double frameEnergyDb(short[] pcm, int offset) {
+        double sum = 0;
+        for (int i = offset; i < offset + FRAME_SIZE; i++) {
+            double sample = pcm[i] / 32768.0;
+            sum += sample * sample;
+        }
+        return 10 * Math.log10(sum / FRAME_SIZE + 1e-10);
+    }
+}
@@ -0,0 +1,205 @@
+package com.telegram.assistant.service.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бенчмарк предобработки голосовых сообщений на синтетическом корпусе.
+ * Для каждого файла выводит исходный и обработанный размер и время предобработки.
+ * Если задано системное свойство {@code whisper.api.url}, дополнительно измеряет медиану
+ * времени ответа Whisper на исходный и обработанный файл и выводит оба результата распознавания.
+ *
+ * <p>Не входит в обычный прогон тестов; запуск:
+ * {@code mvn test -Dtest=AudioPreprocessingBenchmark [-Dwhisper.api.url=http://localhost:9000]}
+ */
+@Slf4j
+class AudioPreprocessingBenchmark {
+
+    private static final int SAMPLE_RATE = OggOpusCodec.SAMPLE_RATE;
+    private static final int[] SOURCE_BITRATES = {24000, 32000, 48000};
+    private static final int PROCESSED_BITRATE = 16000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void reportBytesAndLatency() throws IOException {
+        AudioPreprocessingService service = new AudioPreprocessingService(true, 1, 1, 60000, PROCESSED_BITRATE);
+        String whisperApiUrl = System.getProperty("whisper.api.url");
+        RestTemplate restTemplate = new RestTemplate();
+
+        try {
+            List<Fixture> corpus = corpus();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                corpus.forEach(fixture -> service.preprocess(fixture.data()));
+            }
+
+            log.info(String.format("%-24s %8s %10s %10s %7s %10s",
+                    "fixture", "sec", "orig, B", "proc, B", "ratio", "prep, ms"));
+            long totalOriginal = 0;
+            long totalProcessed = 0;
+            for (Fixture fixture : corpus) {
+                byte[] processed = service.preprocess(fixture.data());
+                long[] timings = new long[MEASURED_ROUNDS];
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    long start = System.nanoTime();
+                    service.preprocess(fixture.data());
+                    timings[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(timings);
+
+                assertTrue(processed.length <= fixture.data().length);
+                totalOriginal += fixture.data().length;
+                totalProcessed += processed.length;
+                log.info(String.format("%-24s %8.1f %10d %10d %7.2f %10.1f",
+                        fixture.name(), fixture.seconds(), fixture.data().length, processed.length,
+                        (double) processed.length / fixture.data().length,
+                        timings[MEASURED_ROUNDS / 2] / 1_000_000.0));
+
+                if (whisperApiUrl != null && !whisperApiUrl.isEmpty()) {
+                    // Прогрев обоих вариантов, затем чередующиеся замеры, чтобы дрейф сервера
+                    // одинаково влиял на исходный и обработанный файл
+                    transcribe(restTemplate, whisperApiUrl, fixture.data());
+                    transcribe(restTemplate, whisperApiUrl, processed);
+                    long[] before = new long[MEASURED_ROUNDS];
+                    long[] after = new long[MEASURED_ROUNDS];
+                    String beforeText = "";
+                    String afterText = "";
+                    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                        Transcription original = transcribe(restTemplate, whisperApiUrl, fixture.data());
+                        Transcription trimmed = transcribe(restTemplate, whisperApiUrl, processed);
+                        before[i] = original.millis();
+                        after[i] = trimmed.millis();
+                        beforeText = original.text();
+                        afterText = trimmed.text();
+                    }
+                    Arrays.sort(before);
+                    Arrays.sort(after);
+                    log.info("    whisper (медиана из {}): {} мс -> {} мс; до: \"{}\"; после: \"{}\"",
+                            MEASURED_ROUNDS, before[MEASURED_ROUNDS / 2], after[MEASURED_ROUNDS / 2],
+                            beforeText.trim(), afterText.trim());
+                }
+            }
+            log.info(String.format("%-24s %8s %10d %10d %7.2f", "total", "", totalOriginal, totalProcessed,
+                    (double) totalProcessed / totalOriginal));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Синтетический корпус: речеподобный сигнал (гласные с гармониками и шумовые согласные)
+     * с разной длиной тишины в начале, в конце и между фразами, закодированный с разными битрейтами.
+     */
+    private static List<Fixture> corpus() throws IOException {
+        List<Fixture> corpus = new ArrayList<>();
+        for (int bitrate : SOURCE_BITRATES) {
+            String suffix = "@" + bitrate / 1000 + "k";
+            corpus.add(fixture("tight" + suffix, bitrate, 1, 200, 200, 150, 300, 0.0));
+            corpus.add(fixture("lead-trail" + suffix, bitrate, 2, 2000, 3000, 300, 600, 0.0));
+            corpus.add(fixture("long-pauses" + suffix, bitrate, 3, 500, 500, 1500, 3000, 0.0));
+            corpus.add(fixture("noisy-pauses" + suffix, bitrate, 4, 1000, 1000, 1000, 2500, 150.0));
+        }
+        return corpus;
+    }
+
+    private static Fixture fixture(String name, int bitrate, long seed, int leadMs, int trailMs,
+                                   int minPauseMs, int maxPauseMs, double noise) throws IOException {
+        Random random = new Random(seed);
+        short[] pcm = new short[SAMPLE_RATE * 90];
+        int pos = leadMs * SAMPLE_RATE / 1000;
+
+        for (int phrase = 0; phrase < 5; phrase++) {
+            int words = 3 + random.nextInt(4);
+            for (int word = 0; word < words; word++) {
+                int syllables = 1 + random.nextInt(3);
+                for (int syllable = 0; syllable < syllables; syllable++) {
+                    if (random.nextBoolean()) {
+                        pos = consonant(pcm, pos, random);
+                    }
+                    pos = vowel(pcm, pos, random);
+                }
+                pos += (50 + random.nextInt(100)) * SAMPLE_RATE / 1000;
+            }
+            if (phrase < 4) {
+                pos += (minPauseMs + random.nextInt(maxPauseMs - minPauseMs + 1)) * SAMPLE_RATE / 1000;
+            }
+        }
+        pcm = Arrays.copyOf(pcm, pos + trailMs * SAMPLE_RATE / 1000);
+
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE,
+                    pcm[i] + random.nextGaussian() * (noise + 20)));
+        }
+        return new Fixture(name, (double) pcm.length / SAMPLE_RATE, OggOpusCodec.encode(pcm, bitrate));
+    }
+
+    /** Гласная: основной тон 100–220 Гц с гармониками и плавной огибающей. */
+    private static int vowel(short[] pcm, int pos, Random random) {
+        int length = (120 + random.nextInt(180)) * SAMPLE_RATE / 1000;
+        double f0 = 100 + random.nextInt(120);
+        double amplitude = 4000 + random.nextInt(6000);
+        for (int i = 0; i < length; i++) {
+            double t = (double) i / SAMPLE_RATE;
+            double envelope = Math.sin(Math.PI * i / length);
+            double f = f0 * (1 + 0.05 * Math.sin(2 * Math.PI * 5 * t));
+            double sample = 0;
+            for (int harmonic = 1; harmonic <= 8; harmonic++) {
+                sample += Math.sin(2 * Math.PI * f * harmonic * t) / harmonic;
+            }
+            pcm[pos + i] += (short) (amplitude * envelope * sample / 2);
+        }
+        return pos + length;
+    }
+
+    /** Согласная: короткий всплеск высокочастотного шума. */
+    private static int consonant(short[] pcm, int pos, Random random) {
+        int length = (40 + random.nextInt(60)) * SAMPLE_RATE / 1000;
+        double amplitude = 1500 + random.nextInt(2500);
+        double previous = 0;
+        for (int i = 0; i < length; i++) {
+            double white = random.nextGaussian();
+            pcm[pos + i] += (short) (amplitude * (white - previous) / 2);
+            previous = white;
+        }
+        return pos + length;
+    }
+
+    private static Transcription transcribe(RestTemplate restTemplate, String whisperApiUrl, byte[] data) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(data) {
+            @Override
+            public String getFilename() {
+                return "voice.oga";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        long start = System.nanoTime();
+        String text = restTemplate.exchange(whisperApiUrl + "/asr", HttpMethod.POST,
+                new HttpEntity<>(body, headers), String.class).getBody();
+        return new Transcription((System.nanoTime() - start) / 1_000_000, text == null ? "" : text);
+    }
+
+    private record Fixture(String name, double seconds, byte[] data) {
+    }
+
+    private record Transcription(long millis, String text) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.telegram.assistant.service.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OggOpusCodecTest {
+
+    /** Первая страница (OpusHead) файла, записанного libogg/opusenc; CRC 0x2f9a618f. */
+    private static final String KNOWN_GOOD_PAGE =
+            "4f676753000200000000000000007d1dad0e000000008f619a2f01134f707573486561640102640144ac0000000000";
+
+    @Test
+    void encodeDecodeRoundTripKeepsLengthAndSignal() throws IOException {
+        short[] pcm = tone(OggOpusCodec.SAMPLE_RATE + 123, 300.0);
+
+        short[] decoded = OggOpusCodec.decode(OggOpusCodec.encode(pcm, 24000));
+
+        // Декодер отдаёт целые кадры за вычетом pre-skip, поэтому хвост не длиннее одного кадра
+        assertTrue(decoded.length >= pcm.length, "decoded " + decoded.length + " < " + pcm.length);
+        assertTrue(decoded.length - pcm.length < OggOpusCodec.FRAME_SIZE,
+                "decoded " + decoded.length + " vs " + pcm.length);
+        assertTrue(correlation(pcm, decoded) > 0.9, "сигнал не совпадает после pre-skip");
+    }
+
+    @Test
+    void encodedPagesCarryValidCrc() throws IOException {
+        byte[] data = OggOpusCodec.encode(tone(OggOpusCodec.SAMPLE_RATE, 300.0), 16000);
+
+        int pos = 0;
+        int pages = 0;
+        while (pos < data.length) {
+            int segments = data[pos + 26] & 0xFF;
+            int size = 27 + segments;
+            for (int i = 0; i < segments; i++) {
+                size += data[pos + 27 + i] & 0xFF;
+            }
+            byte[] page = Arrays.copyOfRange(data, pos, pos + size);
+            assertEquals(readInt(page, 22), OggOpusCodec.pageCrc(page), "страница " + pages);
+            pos += size;
+            pages++;
+        }
+        assertTrue(pages >= 3);
+    }
+
+    @Test
+    void pageCrcMatchesKnownGoodPage() throws IOException {
+        byte[] page = HexFormat.of().parseHex(KNOWN_GOOD_PAGE);
+
+        assertEquals(0x2f9a618f, OggOpusCodec.pageCrc(page));
+
+        List<byte[]> packets = OggOpusCodec.readPackets(page);
+        assertEquals(1, packets.size());
+        assertEquals("OpusHead", new String(packets.get(0), 0, 8, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void readPacketsReassemblesPacketLongerThan255Bytes() throws IOException {
+        byte[] large = randomBytes(600);
+        byte[] exact = randomBytes(510);
+        byte[] small = randomBytes(7);
+        OggOpusCodec.OggPageWriter writer = new OggOpusCodec.OggPageWriter();
+        writer.writePage(List.of(large, exact, small), 0, 0x02);
+
+        List<byte[]> packets = OggOpusCodec.readPackets(writer.toByteArray());
+
+        assertEquals(3, packets.size());
+        assertArrayEquals(large, packets.get(0));
+        assertArrayEquals(exact, packets.get(1));
+        assertArrayEquals(small, packets.get(2));
+    }
+
+    @Test
+    void readPacketsJoinsPacketContinuedOnNextPage() throws IOException {
+        byte[] packet = randomBytes(550);
+        byte[] next = randomBytes(10);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        data.writeBytes(page(0x02, 1, new int[] {255, 255}, Arrays.copyOfRange(packet, 0, 510)));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(Arrays.copyOfRange(packet, 510, 550));
+        body.writeBytes(next);
+        data.writeBytes(page(0x01, 1, new int[] {40, 10}, body.toByteArray()));
+
+        List<byte[]> packets = OggOpusCodec.readPackets(data.toByteArray());
+
+        assertEquals(2, packets.size());
+        assertArrayEquals(packet, packets.get(0));
+        assertArrayEquals(next, packets.get(1));
+    }
+
+    @Test
+    void readPacketsIgnoresOtherLogicalStreams() throws IOException {
+        byte[] first = randomBytes(20);
+        byte[] foreign = randomBytes(30);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        data.writeBytes(page(0x02, 1, new int[] {20}, first));
+        data.writeBytes(page(0x02, 2, new int[] {30}, foreign));
+
+        List<byte[]> packets = OggOpusCodec.readPackets(data.toByteArray());
+
+        assertEquals(1, packets.size());
+        assertArrayEquals(first, packets.get(0));
+    }
+
+    @Test
+    void readPacketsRejectsTruncatedPage() {
+        byte[] data = page(0x02, 1, new int[] {100}, randomBytes(100));
+
+        assertThrows(IOException.class,
+                () -> OggOpusCodec.readPackets(Arrays.copyOf(data, data.length - 1)));
+    }
+
+    @Test
+    void decodeRejectsShortOpusHead() {
+        byte[] head = "OpusHead\u0001\u0001\u0000".getBytes(StandardCharsets.US_ASCII);
+        byte[] tags = "OpusTags".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        data.writeBytes(page(0x02, 1, new int[] {head.length}, head));
+        data.writeBytes(page(0x00, 1, new int[] {tags.length}, tags));
+
+        IOException e = assertThrows(IOException.class, () -> OggOpusCodec.decode(data.toByteArray()));
+        assertTrue(e.getMessage().contains("OpusHead"));
+    }
+
+    private static byte[] page(int headerType, int serial, int[] lacing, byte[] body) {
+        byte[] page = new byte[27 + lacing.length + body.length];
+        System.arraycopy("OggS".getBytes(StandardCharsets.US_ASCII), 0, page, 0, 4);
+        page[5] = (byte) headerType;
+        writeInt(page, 14, serial);
+        page[26] = (byte) lacing.length;
+        for (int i = 0; i < lacing.length; i++) {
+            page[27 + i] = (byte) lacing[i];
+        }
+        System.arraycopy(body, 0, page, 27 + lacing.length, body.length);
+        writeInt(page, 22, OggOpusCodec.pageCrc(page));
+        return page;
+    }
+
+    private static short[] tone(int samples, double frequency) {
+        short[] pcm = new short[samples];
+        for (int i = 0; i < samples; i++) {
+            pcm[i] = (short) (8000 * Math.sin(2 * Math.PI * frequency * i / OggOpusCodec.SAMPLE_RATE));
+        }
+        return pcm;
+    }
+
+    private static double correlation(short[] a, short[] b) {
+        double ab = 0;
+        double aa = 0;
+        double bb = 0;
+        for (int i = 0; i < a.length; i++) {
+            ab += a[i] * (double) b[i];
+            aa += a[i] * (double) a[i];
+            bb += b[i] * (double) b[i];
+        }
+        return ab / Math.sqrt(aa * bb);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+        data[offset + 2] = (byte) (value >> 16);
+        data[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -0,0 +1,114 @@
+package com.telegram.assistant.service.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VoiceActivityDetectorTest {
+
+    private static final int MS = OggOpusCodec.SAMPLE_RATE / 1000;
+
+    @Test
+    void trimsLeadingAndTrailingSilenceKeepingHangover() {
+        short[] pcm = signal(silence(1000), speech(1000), silence(1500));
+
+        short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+
+        // 200 мс до речи + 1000 мс речи + 200 мс после
+        assertEquals(1400 * MS, trimmed.length);
+    }
+
+    @Test
+    void shortensPauseLongerThanLimit() {
+        short[] pcm = signal(silence(200), speech(500), silence(2000), speech(500), silence(200));
+
+        short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+
+        // Пауза 2000 мс сокращается до 600 мс вместе с hangover
+        assertEquals((200 + 500 + 600 + 500 + 200) * MS, trimmed.length);
+    }
+
+    @Test
+    void keepsPauseWithinLimit() {
+        short[] pcm = signal(silence(200), speech(500), silence(600), speech(500), silence(200));
+
+        short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+
+        assertEquals((200 + 500 + 600 + 500 + 200) * MS, trimmed.length);
+    }
+
+    @Test
+    void keepsSubFrameTailWhenSpeechRunsToTheEnd() {
+        short[] pcm = signal(silence(1000), speech(1000), new short[100]);
+        for (int i = pcm.length - 100; i < pcm.length; i++) {
+            pcm[i] = 5000;
+        }
+
+        short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+
+        assertEquals(1200 * MS + 100, trimmed.length);
+    }
+
+    @Test
+    void keepsQuieterStretchOfContinuousSpeech() {
+        // Говорящий отодвинулся от телефона: участок на 25 дБ тише, тишины в записи нет
+        short[] pcm = signal(speech(5000), speech(3000, 25.0), speech(3000));
+
+        short[] trimmed = VoiceActivityDetector.trimSilence(pcm);
+
+        assertEquals(pcm.length, trimmed.length);
+    }
+
+    @Test
+    void returnsInputWhenNoSpeechDetected() {
+        short[] pcm = silence(3000);
+
+        assertSame(pcm, VoiceActivityDetector.trimSilence(pcm));
+    }
+
+    @Test
+    void returnsInputShorterThanFrame() {
+        short[] pcm = new short[OggOpusCodec.FRAME_SIZE - 1];
+
+        assertSame(pcm, VoiceActivityDetector.trimSilence(pcm));
+    }
+
+    private static short[] silence(int ms) {
+        Random random = new Random(ms);
+        short[] pcm = new short[ms * MS];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (random.nextGaussian() * 30);
+        }
+        return pcm;
+    }
+
+    private static short[] speech(int ms) {
+        return speech(ms, 0.0);
+    }
+
+    private static short[] speech(int ms, double attenuationDb) {
+        double amplitude = 8000 * Math.pow(10, -attenuationDb / 20);
+        short[] pcm = new short[ms * MS];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (amplitude * Math.sin(2 * Math.PI * 220 * i / OggOpusCodec.SAMPLE_RATE));
+        }
+        return pcm;
+    }
+
+    private static short[] signal(short[]... parts) {
+        int length = 0;
+        for (short[] part : parts) {
+            length += part.length;
+        }
+        short[] pcm = new short[length];
+        int offset = 0;
+        for (short[] part : parts) {
+            System.arraycopy(part, 0, pcm, offset, part.length);
+            offset += part.length;
+        }
+        return pcm;
+    }
+}